@@ -8,6 +8,24 @@ import java.util.*;
  */
 public class Huffman {
 
+	/**
+	 * The number of interleaved bitstreams used by compressInterleaved when no
+	 * count is given
+	 */
+	public static final int DEFAULT_STREAM_COUNT = 4;
+
+	/**
+	 * The largest length, in bytes, of a single interleaved bitstream, since each
+	 * jump table entry is one byte
+	 */
+	public static final int MAX_STREAM_LENGTH = 255;
+
+	/**
+	 * The number of bits used to write the raw code point that follows each
+	 * escape code
+	 */
+	public static final int ESCAPED_CHARACTER_WIDTH = 16;
+
 	// -----------------------------------------------
 	// Construction
 	// -----------------------------------------------
@@ -15,6 +33,10 @@ public class Huffman {
 	private HuffNode trieRoot;
 	private Map<Character, String> encodingMap;
 
+	private HuffNode escapeNode;
+	private String escapeEncoding;
+	private int escapeCount;
+
 	/**
 	 * Creates a HashMap of character keys found in the corpus whose matching values
 	 * are the number of times the character repeats in the corpus
@@ -53,7 +75,8 @@ public class Huffman {
 	 *               number of times they are repeated in the corpus as their
 	 *               corresponding values trieQueue A priorityQueue whose priority
 	 *               is dictated based on the number of repetitions of each
-	 *               character found in charCountPairings
+	 *               character found in charCountPairings. The escapeNode, if
+	 *               reserved, is added with a count of 0.
 	 */
 	private void constructTriePriorityQueue(String corpus, HashMap<Character, Integer> charCountPairings,
 			PriorityQueue<HuffNode> trieQueue) {
@@ -62,6 +85,9 @@ public class Huffman {
 			currentNode = new HuffNode(entry.getKey(), entry.getValue());
 			trieQueue.add(currentNode);
 		}
+		if (escapeNode != null) {
+			trieQueue.add(escapeNode);
+		}
 	}
 
 	/**
@@ -113,9 +139,15 @@ public class Huffman {
 	 *                     track of where the current position is in the trie
 	 *                     encodingMap a HashMap that that is modified to include
 	 *                     distinct character keys and their corresponding byte
-	 *                     encoding values after recursing through the trie
+	 *                     encoding values after recursing through the trie. The
+	 *                     escapeNode is kept out of the map and its code is stored
+	 *                     in escapeEncoding instead.
 	 */
 	private void constructEncodingMap(String byteEncoding, HuffNode currentNode, Map<Character, String> encodingMap) {
+		if (currentNode == escapeNode) {
+			escapeEncoding = byteEncoding;
+			return;
+		}
 		if (currentNode.isLeaf()) {
 			encodingMap.put(currentNode.character, byteEncoding);
 			return;
@@ -139,6 +171,25 @@ public class Huffman {
 	 *               differ.
 	 */
 	Huffman(String corpus) {
+		this(corpus, false);
+	}
+
+	/**
+	 * Creates the Huffman Trie and Encoding Map using the character distributions
+	 * in the given text corpus, optionally reserving an escape symbol in the trie.
+	 * Any character missing from the corpus is then compressed as the escape code
+	 * followed by its raw {@value #ESCAPED_CHARACTER_WIDTH}-bit value, so messages
+	 * that drift from the corpus remain encodable without building a new Huffman.
+	 * 
+	 * @param corpus        A String representing a message / document corpus
+	 *                      with distributions over characters that are implicitly
+	 *                      used throughout the methods that follow.
+	 * @param reserveEscape Whether to add the escape symbol to the trie
+	 */
+	Huffman(String corpus, boolean reserveEscape) {
+		if (reserveEscape) {
+			this.escapeNode = new HuffNode('\0', 0);
+		}
 		PriorityQueue<HuffNode> trie = new PriorityQueue<>();
 		HashMap<Character, Integer> charCountPairings = new HashMap<>();
 		constructCharToCountMap(corpus, charCountPairings);
@@ -152,6 +203,73 @@ public class Huffman {
 	// Compression
 	// -----------------------------------------------
 
+	/**
+	 * Returns the number of characters that have been compressed through the
+	 * escape code because they were missing from the corpus. A high count relative
+	 * to the size of the compressed messages suggests that a new Huffman should be
+	 * built from a fresh corpus.
+	 * 
+	 * @return The number of escaped characters across all calls to compress
+	 */
+	public int getEscapeCount() {
+		return escapeCount;
+	}
+
+	/**
+	 * Finds the bit encoding of a single character, falling back on the escape
+	 * code followed by the raw character when the character has no encoding of its
+	 * own
+	 * 
+	 * @param character char to encode
+	 * @return The string representation of the character's bit encoding, or null
+	 *         if the character is missing from the corpus and no escape symbol was
+	 *         reserved
+	 */
+	private String constructCharacterEncoding(char character) {
+		String characterEncoding = encodingMap.get(character);
+		if (characterEncoding == null && escapeEncoding != null) {
+			characterEncoding = escapeEncoding + String
+					.format("%" + ESCAPED_CHARACTER_WIDTH + "s", Integer.toBinaryString(character)).replace(' ', '0');
+		}
+		return characterEncoding;
+	}
+
+	/**
+	 * Finds the bit encoding of a single character of a message being compressed
+	 * 
+	 * @param character char to encode
+	 * @return The string representation of the character's bit encoding
+	 * @throws IllegalArgumentException if the character is missing from the corpus
+	 *                                  and no escape symbol was reserved
+	 */
+	private String constructCharacterEncodingForCompression(char character) {
+		String characterEncoding = constructCharacterEncoding(character);
+		if (characterEncoding == null) {
+			throw new IllegalArgumentException("character '" + character + "' (U+"
+					+ String.format("%04X", (int) character)
+					+ ") does not appear in the corpus and no escape symbol was reserved");
+		}
+		return characterEncoding;
+	}
+
+	/**
+	 * Counts the characters of a message that are compressed through the escape
+	 * code. Only called once the message has been compressed successfully, so that
+	 * rejected messages never add to the escapeCount.
+	 * 
+	 * @param message String representing the corpus that was compressed
+	 * @return The number of characters in the message missing from the corpus
+	 */
+	private int countEscapedCharacters(String message) {
+		int escapedCharacters = 0;
+		for (int i = 0; i < message.length(); i++) {
+			if (!encodingMap.containsKey(message.charAt(i))) {
+				escapedCharacters++;
+			}
+		}
+		return escapedCharacters;
+	}
+
 	/**
 	 * Adds padded 0s to the current string version of the compressed byte encoding
 	 * of the original corpus in order to more easily separate the bits into bytes
@@ -182,7 +300,7 @@ public class Huffman {
 	 */
 	private String constructStringByteEncodingForCompression(String message, String stringBitEncoding) {
 		for (int i = 0; i < message.length(); i++) {
-			stringBitEncoding += encodingMap.get(message.charAt(i));
+			stringBitEncoding += constructCharacterEncodingForCompression(message.charAt(i));
 		}
 		return addPadded0s(stringBitEncoding);
 	}
@@ -198,6 +316,9 @@ public class Huffman {
 	 *         contains the number of characters in the message, (2) the bitstring
 	 *         containing the message itself, (3) possible 0-padding on the final
 	 *         byte.
+	 * @throws IllegalArgumentException if the message contains a character missing
+	 *                                  from the corpus and no escape symbol was
+	 *                                  reserved
 	 */
 	public byte[] compress(String message) {
 		int currentByte = 0;
@@ -216,6 +337,7 @@ public class Huffman {
 			beginningOfCurrentByteIndex = endOfCurrentByteIndex;
 			indexOfCompressedEncodingArray++;
 		}
+		escapeCount += countEscapedCharacters(message);
 		return compressedByteArrayEncoding;
 	}
 
@@ -229,20 +351,36 @@ public class Huffman {
 	 * original corpus
 	 * 
 	 * @param compressedMsg {@code byte[]} representing the compressed byte encoding
-	 *                      of the original corpus compressedMessage the String
-	 *                      representation of the byte encoding of the original
-	 *                      corpus
+	 *                      of the original corpus firstByteIndex the index of the
+	 *                      first byte following the header compressedMessage the
+	 *                      String representation of the byte encoding of the
+	 *                      original corpus
 	 * @return The the string representation of the compressed encoding of the
 	 *         original corpus
 	 */
-	private String constructStringByteEncodingForDecompression(byte[] compressedMsg, String compressedMessage) {
-		for (int i = 1; i < compressedMsg.length; i++) {
+	private String constructStringByteEncodingForDecompression(byte[] compressedMsg, int firstByteIndex,
+			String compressedMessage) {
+		for (int i = firstByteIndex; i < compressedMsg.length; i++) {
 			compressedMessage += String.format("%8s", Integer.toBinaryString(compressedMsg[i] & 0xFF)).replace(' ',
 					'0');
 		}
 		return compressedMessage;
 	}
 
+	/**
+	 * Reads the raw character written after an escape code
+	 * 
+	 * @param stringByteEncoding String representation of the compressed encoding
+	 *                           positionInStringByteEncoding the index of the first
+	 *                           bit following the escape code
+	 * @return The character whose {@value #ESCAPED_CHARACTER_WIDTH} bits begin at
+	 *         the given position
+	 */
+	private char readEscapedCharacter(String stringByteEncoding, int positionInStringByteEncoding) {
+		return (char) Integer.parseInt(stringByteEncoding.substring(positionInStringByteEncoding,
+				positionInStringByteEncoding + ESCAPED_CHARACTER_WIDTH), 2);
+	}
+
 	/**
 	 * Decompresses the given compressed array of bytes into their original, String
 	 * representation. Uses the trieRoot field (the Huffman Trie) that generated the
@@ -260,7 +398,7 @@ public class Huffman {
 		int lengthWithoutPadding = compressedMsg[0];
 		String decompressedMessage = "";
 		HuffNode currentNodeInTrie = trieRoot;
-		String currentByteString = constructStringByteEncodingForDecompression(compressedMsg, "");
+		String currentByteString = constructStringByteEncodingForDecompression(compressedMsg, 1, "");
 		for (int positionInStringByteEncoding = 0; positionInStringByteEncoding < currentByteString
 				.length(); positionInStringByteEncoding++) {
 			if (decompressedMessage.length() == lengthWithoutPadding) {
@@ -271,7 +409,12 @@ public class Huffman {
 			} else if (currentByteString.charAt(positionInStringByteEncoding) == '1') {
 				currentNodeInTrie = currentNodeInTrie.right;
 			}
-			if (currentNodeInTrie.isLeaf()) {
+			if (currentNodeInTrie == escapeNode) {
+				decompressedMessage += Character
+						.toString(readEscapedCharacter(currentByteString, positionInStringByteEncoding + 1));
+				positionInStringByteEncoding += ESCAPED_CHARACTER_WIDTH;
+				currentNodeInTrie = trieRoot;
+			} else if (currentNodeInTrie.isLeaf()) {
 				decompressedMessage += Character.toString(currentNodeInTrie.character);
 				currentNodeInTrie = trieRoot;
 			}
@@ -280,6 +423,288 @@ public class Huffman {
 		return decompressedMessage;
 	}
 
+	// -----------------------------------------------
+	// Interleaved Compression
+	// -----------------------------------------------
+
+	/**
+	 * Copies the given padded string of bits into the byte array, 8 bits per byte,
+	 * starting at the given index
+	 *
+	 * @param stringByteEncoding String of bits whose length is a multiple of 8
+	 *                           compressedByteArrayEncoding the byte array being
+	 *                           filled startIndex the index in the byte array at
+	 *                           which to place the first byte
+	 */
+	private void constructByteArrayEncoding(String stringByteEncoding, byte[] compressedByteArrayEncoding,
+			int startIndex) {
+		for (int i = 0; i < stringByteEncoding.length(); i += 8) {
+			compressedByteArrayEncoding[startIndex + i / 8] = (byte) Integer
+					.parseInt(stringByteEncoding.substring(i, i + 8), 2);
+		}
+	}
+
+	/**
+	 * Compresses the given message into {@value #DEFAULT_STREAM_COUNT} interleaved
+	 * bitstreams
+	 *
+	 * @param message String representing the corpus to compress.
+	 * @return {@code byte[]} in the format described by
+	 *         {@link #compressInterleaved(String, int)}
+	 */
+	public byte[] compressInterleaved(String message) {
+		return compressInterleaved(message, DEFAULT_STREAM_COUNT);
+	}
+
+	/**
+	 * Compresses the given message into several interleaved bitstreams that share
+	 * the encodingMap. Character i of the message is written to stream (i %
+	 * streamCount), so the decoder can advance every stream within the same loop
+	 * instead of waiting on one long serial chain of codeword lengths.
+	 *
+	 * @param message     String representing the corpus to compress.
+	 * @param streamCount The number of bitstreams to split the message across,
+	 *                    between 1 and 255
+	 * @throws IllegalArgumentException if streamCount is out of range, if the
+	 *                                  message is longer than 255 characters, if
+	 *                                  any stream would be longer than
+	 *                                  {@value #MAX_STREAM_LENGTH} bytes, or if the
+	 *                                  message contains a character missing from
+	 *                                  the corpus and no escape symbol was reserved
+	 * @return {@code byte[]} representing the compressed corpus. Formatted as 4
+	 *         components: (1) the first byte contains the number of characters in
+	 *         the message, read as unsigned, (2) the second byte contains the number of streams, (3)
+	 *         a jump table with one byte per stream holding that stream's length
+	 *         in bytes, (4) each stream's bitstring, individually 0-padded to a
+	 *         whole byte, in order.
+	 */
+	public byte[] compressInterleaved(String message, int streamCount) {
+		if (streamCount < 1 || streamCount > 255) {
+			throw new IllegalArgumentException("streamCount must be between 1 and 255, got " + streamCount);
+		}
+		if (message.length() > 255) {
+			throw new IllegalArgumentException(
+					"message is " + message.length() + " characters long, longer than the 255 the header can hold");
+		}
+		String[] streamEncodings = new String[streamCount];
+		Arrays.fill(streamEncodings, "");
+		for (int i = 0; i < message.length(); i++) {
+			streamEncodings[i % streamCount] += constructCharacterEncodingForCompression(message.charAt(i));
+		}
+		int headerLength = 2 + streamCount;
+		int totalLength = headerLength;
+		for (int stream = 0; stream < streamCount; stream++) {
+			streamEncodings[stream] = addPadded0s(streamEncodings[stream]);
+			if (streamEncodings[stream].length() / 8 > MAX_STREAM_LENGTH) {
+				throw new IllegalArgumentException("stream " + stream + " is " + streamEncodings[stream].length() / 8
+						+ " bytes long, longer than the " + MAX_STREAM_LENGTH + " bytes a jump table entry can hold");
+			}
+			totalLength += streamEncodings[stream].length() / 8;
+		}
+		byte[] compressedByteArrayEncoding = new byte[totalLength];
+		compressedByteArrayEncoding[0] = (byte) message.length();
+		compressedByteArrayEncoding[1] = (byte) streamCount;
+		int indexOfCompressedEncodingArray = headerLength;
+		for (int stream = 0; stream < streamCount; stream++) {
+			compressedByteArrayEncoding[2 + stream] = (byte) (streamEncodings[stream].length() / 8);
+			constructByteArrayEncoding(streamEncodings[stream], compressedByteArrayEncoding,
+					indexOfCompressedEncodingArray);
+			indexOfCompressedEncodingArray += streamEncodings[stream].length() / 8;
+		}
+		escapeCount += countEscapedCharacters(message);
+		return compressedByteArrayEncoding;
+	}
+
+	/**
+	 * Decompresses a message produced by compressInterleaved. The jump table gives
+	 * the starting bit of every stream up front, and each pass of the decoding loop
+	 * reads one character from every stream in turn, which restores the original
+	 * character order.
+	 *
+	 * @param compressedMsg {@code byte[]} in the format described by
+	 *                      {@link #compressInterleaved(String, int)}
+	 * @return Decompressed String representation of the compressed bytecode
+	 *         message.
+	 */
+	public String decompressInterleaved(byte[] compressedMsg) {
+		int lengthWithoutPadding = compressedMsg[0] & 0xFF;
+		int streamCount = compressedMsg[1] & 0xFF;
+		int headerLength = 2 + streamCount;
+		int[] positionInStream = new int[streamCount];
+		for (int stream = 1; stream < streamCount; stream++) {
+			positionInStream[stream] = positionInStream[stream - 1] + (compressedMsg[1 + stream] & 0xFF) * 8;
+		}
+		String currentByteString = constructStringByteEncodingForDecompression(compressedMsg, headerLength, "");
+		StringBuilder decompressedMessage = new StringBuilder(lengthWithoutPadding);
+		HuffNode currentNodeInTrie;
+		while (decompressedMessage.length() < lengthWithoutPadding) {
+			for (int stream = 0; stream < streamCount
+					&& decompressedMessage.length() < lengthWithoutPadding; stream++) {
+				currentNodeInTrie = trieRoot;
+				while (!currentNodeInTrie.isLeaf()) {
+					if (currentByteString.charAt(positionInStream[stream]) == '0') {
+						currentNodeInTrie = currentNodeInTrie.left;
+					} else {
+						currentNodeInTrie = currentNodeInTrie.right;
+					}
+					positionInStream[stream]++;
+				}
+				if (currentNodeInTrie == escapeNode) {
+					decompressedMessage.append(readEscapedCharacter(currentByteString, positionInStream[stream]));
+					positionInStream[stream] += ESCAPED_CHARACTER_WIDTH;
+				} else {
+					decompressedMessage.append(currentNodeInTrie.character);
+				}
+			}
+		}
+		return decompressedMessage.toString();
+	}
+
+	// -----------------------------------------------
+	// Search
+	// -----------------------------------------------
+
+	/**
+	 * Creates the string version of the bit encoding of the given pattern using
+	 * the encodingMap (and the escape code, if reserved), without any padded 0s
+	 *
+	 * @param pattern String whose characters are each mapped to their bit
+	 *                encoding
+	 * @return The string representation of the encoded pattern, or null if the
+	 *         pattern contains a character that has no encoding
+	 */
+	private String constructStringByteEncodingForSearch(String pattern) {
+		String patternEncoding = "";
+		for (int i = 0; i < pattern.length(); i++) {
+			String characterEncoding = constructCharacterEncoding(pattern.charAt(i));
+			if (characterEncoding == null) {
+				return null;
+			}
+			patternEncoding += characterEncoding;
+		}
+		return patternEncoding;
+	}
+
+	/**
+	 * Reads a single bit of the compressed bitstring directly from the compressed
+	 * byte array, skipping the length byte
+	 *
+	 * @param compressedMsg {@code byte[]} representing the compressed corpus
+	 *                      bitIndex the index of the bit within the bitstring
+	 * @return The bit, as 0 or 1
+	 */
+	private int readBit(byte[] compressedMsg, int bitIndex) {
+		return (compressedMsg[1 + bitIndex / 8] >> (7 - bitIndex % 8)) & 1;
+	}
+
+	/**
+	 * Creates the Knuth-Morris-Pratt failure table of the encoded pattern, where
+	 * entry i holds the length of the longest proper prefix of the first i + 1
+	 * bits that is also a suffix of them
+	 *
+	 * @param patternEncoding String representation of the encoded pattern
+	 * @return The failure table of the encoded pattern
+	 */
+	private int[] constructFailureTable(String patternEncoding) {
+		int[] failureTable = new int[patternEncoding.length()];
+		int matchedBits = 0;
+		for (int i = 1; i < patternEncoding.length(); i++) {
+			while (matchedBits > 0 && patternEncoding.charAt(i) != patternEncoding.charAt(matchedBits)) {
+				matchedBits = failureTable[matchedBits - 1];
+			}
+			if (patternEncoding.charAt(i) == patternEncoding.charAt(matchedBits)) {
+				matchedBits++;
+			}
+			failureTable[i] = matchedBits;
+		}
+		return failureTable;
+	}
+
+	/**
+	 * Walks the trie over a single codeword of the compressed bitstring, including
+	 * the raw character that follows an escape code, without decoding it
+	 *
+	 * @param compressedMsg {@code byte[]} representing the compressed corpus
+	 *                      bitIndex the index of the first bit of the codeword
+	 * @return The index of the first bit of the following codeword
+	 */
+	private int findEndOfCodeword(byte[] compressedMsg, int bitIndex) {
+		HuffNode currentNodeInTrie = trieRoot;
+		do {
+			if (readBit(compressedMsg, bitIndex) == 0) {
+				currentNodeInTrie = currentNodeInTrie.left;
+			} else {
+				currentNodeInTrie = currentNodeInTrie.right;
+			}
+			bitIndex++;
+		} while (!currentNodeInTrie.isLeaf());
+		if (currentNodeInTrie == escapeNode) {
+			bitIndex += ESCAPED_CHARACTER_WIDTH;
+		}
+		return bitIndex;
+	}
+
+	/**
+	 * Finds every occurrence of the given pattern in a compressed message without
+	 * decompressing it. The pattern is encoded once with the encodingMap and its
+	 * bits are matched against the bits of the compressed byte array with
+	 * Knuth-Morris-Pratt, so no String of bits or decoded characters is built.
+	 * Because a bit match is only a real match when it begins on a codeword
+	 * boundary, each candidate is checked by walking the trie forward from the
+	 * last known boundary up to the candidate. This format has no sync points, so
+	 * that walk still visits every codeword before the last candidate; the search
+	 * saves the cost of rebuilding the message, not of finding the boundaries.
+	 *
+	 * @param compressedMsg {@code byte[]} representing the compressed corpus, in
+	 *                      the same format produced by compress
+	 * @param pattern       String literal to search for
+	 * @return {@code List<Integer>} of the character offsets in the original
+	 *         message at which the pattern begins, in increasing order
+	 */
+	public List<Integer> search(byte[] compressedMsg, String pattern) {
+		List<Integer> matchOffsets = new ArrayList<>();
+		int lengthWithoutPadding = compressedMsg[0] & 0xFF;
+		String patternEncoding = constructStringByteEncodingForSearch(pattern);
+		if (patternEncoding == null || pattern.length() > lengthWithoutPadding) {
+			return matchOffsets;
+		}
+		if (pattern.isEmpty()) {
+			for (int characterOffset = 0; characterOffset <= lengthWithoutPadding; characterOffset++) {
+				matchOffsets.add(characterOffset);
+			}
+			return matchOffsets;
+		}
+		int[] failureTable = constructFailureTable(patternEncoding);
+		int lengthInBits = (compressedMsg.length - 1) * 8;
+		int matchedBits = 0;
+		int boundaryBitIndex = 0;
+		int characterOffset = 0;
+		for (int bitIndex = 0; bitIndex < lengthInBits; bitIndex++) {
+			char bit = readBit(compressedMsg, bitIndex) == 0 ? '0' : '1';
+			while (matchedBits > 0 && bit != patternEncoding.charAt(matchedBits)) {
+				matchedBits = failureTable[matchedBits - 1];
+			}
+			if (bit == patternEncoding.charAt(matchedBits)) {
+				matchedBits++;
+			}
+			if (matchedBits == patternEncoding.length()) {
+				matchedBits = failureTable[matchedBits - 1];
+				int candidateBitIndex = bitIndex - patternEncoding.length() + 1;
+				while (boundaryBitIndex < candidateBitIndex && characterOffset < lengthWithoutPadding) {
+					boundaryBitIndex = findEndOfCodeword(compressedMsg, boundaryBitIndex);
+					characterOffset++;
+				}
+				if (characterOffset + pattern.length() > lengthWithoutPadding) {
+					break;
+				}
+				if (boundaryBitIndex == candidateBitIndex) {
+					matchOffsets.add(characterOffset);
+				}
+			}
+		}
+		return matchOffsets;
+	}
+
 	// -----------------------------------------------
 	// Huffman Trie
 	// -----------------------------------------------
@@ -1,6 +1,9 @@
 package huffman;
 
 import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
 import org.junit.Test;
 
 public class HuffmanTests {
@@ -193,4 +196,262 @@ public class HuffmanTests {
 		assertEquals("SSHHAANNYY", h.decompress(compressed));
 	}
 
+	// Interleaved Compression Tests
+	// -----------------------------------------------
+	@Test
+	public void interleaved_t0() {
+		Huffman h = new Huffman("ABBBCC");
+		// byte 0: 0000 0110 = 6 (message length = 6)
+		// byte 1: 0000 0010 = 2 (stream count = 2)
+		// byte 2: 0000 0001 = 1 (stream 0 length in bytes)
+		// byte 3: 0000 0001 = 1 (stream 1 length in bytes)
+		// byte 4: 1001 1000 = -104 (stream 0: "A", "B", "C")
+		// byte 5: 0011 0000 = 48 (stream 1: "B", "B", "C")
+		byte[] compressed = { 6, 2, 1, 1, -104, 48 };
+		assertArrayEquals(compressed, h.compressInterleaved("ABBBCC", 2));
+		assertEquals("ABBBCC", h.decompressInterleaved(compressed));
+	}
+
+	@Test
+	public void interleaved_t1() {
+		Huffman h = new Huffman("BBBBBBBAAAAAAACCCCCCC");
+		byte[] compressed = h.compressInterleaved("BBBBBBBAAAAAAACCCCCCC");
+		assertEquals(Huffman.DEFAULT_STREAM_COUNT, compressed[1]);
+		assertEquals("BBBBBBBAAAAAAACCCCCCC", h.decompressInterleaved(compressed));
+	}
+
+	@Test
+	public void interleaved_t2() {
+		Huffman h = new Huffman("SSHHAANNYY");
+		// [!] More streams than characters leaves the extra streams empty
+		byte[] compressed = h.compressInterleaved("SHY", 5);
+		assertEquals(0, compressed[5]);
+		assertEquals(0, compressed[6]);
+		assertEquals("SHY", h.decompressInterleaved(compressed));
+	}
+
+	@Test
+	public void interleaved_t3() {
+		Huffman h = new Huffman("");
+		byte[] compressed = { 0, 4, 0, 0, 0, 0 };
+		assertArrayEquals(compressed, h.compressInterleaved(""));
+		assertEquals("", h.decompressInterleaved(compressed));
+	}
+
+	@Test
+	public void interleaved_t4() {
+		Huffman h = new Huffman("AAAAAAAAAAAAAAAAA");
+		byte[] compressed = h.compressInterleaved("AAAAAAAAAAAAAAAAA", 1);
+		// [!] A single stream holds the same bitstring as compress
+		assertArrayEquals(new byte[] { 17, 1, 3, 0, 0, 0 }, compressed);
+		assertEquals("AAAAAAAAAAAAAAAAA", h.decompressInterleaved(compressed));
+	}
+
+	@Test
+	public void interleaved_t5() {
+		Huffman h = new Huffman("ABBBCC");
+		// 127 "A"s (10) split over 1 stream = 254 bits = 32 bytes, well under
+		// the limit; the jump table entry must hold the exact length
+		String message = new String(new char[127]).replace('\0', 'A');
+		byte[] compressed = h.compressInterleaved(message, 1);
+		assertEquals(32, compressed[2]);
+		assertEquals(message, h.decompressInterleaved(compressed));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void interleaved_t6() {
+		Huffman h = new Huffman("", true);
+		// Every "Z" is escaped: 1 bit of escape code + 16 raw bits, so 121
+		// characters in 1 stream need 2057 bits = 258 bytes, over the 255 limit
+		String message = new String(new char[121]).replace('\0', 'Z');
+		h.compressInterleaved(message, 1);
+	}
+
+	@Test
+	public void interleaved_t7() {
+		Huffman h = new Huffman("", true);
+		// 120 escaped "Z"s = 2040 bits = exactly 255 bytes, the largest allowed
+		String message = new String(new char[120]).replace('\0', 'Z');
+		byte[] compressed = h.compressInterleaved(message, 1);
+		assertEquals(255, compressed[2] & 0xFF);
+		assertEquals(message, h.decompressInterleaved(compressed));
+	}
+
+	@Test
+	public void interleaved_t8() {
+		Huffman h = new Huffman("ABBBCC");
+		// [!] Lengths of 128 to 255 characters are read back as unsigned
+		String message = new String(new char[200]).replace('\0', 'B');
+		byte[] compressed = h.compressInterleaved(message, 4);
+		assertEquals(200, compressed[0] & 0xFF);
+		assertEquals(message, h.decompressInterleaved(compressed));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void interleaved_t9() {
+		Huffman h = new Huffman("ABBBCC");
+		String message = new String(new char[256]).replace('\0', 'B');
+		h.compressInterleaved(message, 4);
+	}
+
+	// Search Tests
+	// -----------------------------------------------
+	@Test
+	public void search_t0() {
+		Huffman h = new Huffman("ABBBCC");
+		// (10 = "A", 0 = "B", C = 11)
+		// bits: 0100 1101 1 -- "BC" = 011 begins at bits 3 and 6
+		byte[] compressed = h.compress("BABCBC");
+		assertEquals(Arrays.asList(2, 4), h.search(compressed, "BC"));
+	}
+
+	@Test
+	public void search_t1() {
+		Huffman h = new Huffman("ABBBCC");
+		// (10 = "A", 0 = "B", C = 11)
+		// bits: 1000 0111 1 -- "BB" = 00 also starts inside "A" at bit 1
+		byte[] compressed = { 6, -121, -128 };
+		assertEquals(Arrays.asList(1, 2), h.search(compressed, "BB"));
+	}
+
+	@Test
+	public void search_t2() {
+		Huffman h = new Huffman("AAAAAAAAAAAAAAAAA");
+		byte[] compressed = { 17, 0, 0, 0 };
+		// [!] Padding 0s after the message never count as matches
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14),
+				h.search(compressed, "AAA"));
+	}
+
+	@Test
+	public void search_t3() {
+		Huffman h = new Huffman("ABBBCC");
+		byte[] compressed = h.compress("BABCBC");
+		assertEquals(Arrays.asList(), h.search(compressed, "D"));
+		assertEquals(Arrays.asList(), h.search(compressed, "CA"));
+		assertEquals(Arrays.asList(), h.search(compressed, "BABCBCB"));
+	}
+
+	@Test
+	public void search_t4() {
+		Huffman h = new Huffman("");
+		byte[] compressed = { 0 };
+		assertEquals(Arrays.asList(0), h.search(compressed, ""));
+		assertEquals(Arrays.asList(), h.search(compressed, "A"));
+	}
+
+	@Test
+	public void search_t5() {
+		Huffman h = new Huffman("SSHHAANNYY");
+		String message = "SHANNYSAYSHANNAHHASSHYNAYS";
+		byte[] compressed = h.compress(message);
+		// [!] Overlapping and repeated matches are all reported
+		assertEquals(Arrays.asList(2, 11), h.search(compressed, "ANN"));
+		assertEquals(Arrays.asList(3, 4, 12, 13, 22), h.search(compressed, "N"));
+		assertEquals(Arrays.asList(0), h.search(compressed, message));
+	}
+
+	@Test
+	public void search_t6() {
+		Huffman h = new Huffman("ABBBCC");
+		// [!] Lengths of 128 to 255 characters are read back as unsigned
+		String message = new String(new char[150]).replace('\0', 'B') + "AC";
+		byte[] compressed = h.compress(message);
+		assertEquals(Arrays.asList(150), h.search(compressed, "AC"));
+		assertEquals(149, h.search(compressed, "BB").size());
+	}
+
+	// Escape Tests
+	// -----------------------------------------------
+	@Test
+	public void escape_t0() {
+		Huffman h = new Huffman("ABB", true);
+		// (00 = escape, 01 = "A", 1 = "B")
+		// byte 0: 0000 0010 = 2 (message length = 2)
+		// byte 1: 1000 0000 = -128 ("B", escape, then "Z" = 0000 0000 0101 1010)
+		// byte 2: 0000 1011 = 11
+		// byte 3: 0100 0000 = 64
+		byte[] compressed = { 2, -128, 11, 64 };
+		assertArrayEquals(compressed, h.compress("BZ"));
+		assertEquals(1, h.getEscapeCount());
+		assertEquals("BZ", h.decompress(compressed));
+	}
+
+	@Test
+	public void escape_t1() {
+		Huffman h = new Huffman("ABBBCC", true);
+		byte[] compressed = h.compress("ABBBCC");
+		assertEquals(0, h.getEscapeCount());
+		assertEquals("ABBBCC", h.decompress(compressed));
+		compressed = h.compress("CAFE\u00e9BAC");
+		assertEquals(3, h.getEscapeCount());
+		assertEquals("CAFE\u00e9BAC", h.decompress(compressed));
+	}
+
+	@Test
+	public void escape_t2() {
+		Huffman h = new Huffman("", true);
+		byte[] compressed = h.compress("Hi");
+		assertEquals(2, h.getEscapeCount());
+		assertEquals("Hi", h.decompress(compressed));
+	}
+
+	@Test
+	public void escape_t3() {
+		Huffman h = new Huffman("ABBBCC", true);
+		byte[] compressed = h.compressInterleaved("XAYBZC", 3);
+		assertEquals(3, h.getEscapeCount());
+		assertEquals("XAYBZC", h.decompressInterleaved(compressed));
+	}
+
+	@Test
+	public void escape_t4() {
+		Huffman h = new Huffman("ABBBCC", true);
+		byte[] compressed = h.compress("BAXBCXAB");
+		assertEquals(Arrays.asList(2, 5), h.search(compressed, "X"));
+		assertEquals(Arrays.asList(1), h.search(compressed, "AXB"));
+		assertEquals(Arrays.asList(), h.search(compressed, "Y"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void escape_t5() {
+		Huffman h = new Huffman("AB");
+		// [!] Without an escape symbol, "Z" has no encoding at all
+		h.compress("ABZ");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void escape_t6() {
+		Huffman h = new Huffman("AB", false);
+		h.compressInterleaved("ABZ", 2);
+	}
+
+	@Test
+	public void escape_t7() {
+		Huffman h = new Huffman("AB");
+		try {
+			h.compress("ABZ");
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("'Z'"));
+		}
+		assertEquals(0, h.getEscapeCount());
+	}
+
+	@Test
+	public void escape_t8() {
+		Huffman h = new Huffman("", true);
+		// [!] 121 escaped "Z"s overflow a single stream, so nothing is compressed
+		// and nothing is counted
+		String message = new String(new char[121]).replace('\0', 'Z');
+		try {
+			h.compressInterleaved(message, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+		assertEquals(0, h.getEscapeCount());
+		h.compressInterleaved(message, 2);
+		assertEquals(121, h.getEscapeCount());
+	}
+
 }